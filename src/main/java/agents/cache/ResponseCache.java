@@ -0,0 +1,241 @@
+package agents.cache;
+
+import com.google.adk.events.Event;
+import com.google.adk.events.EventActions;
+import com.google.adk.runner.Runner;
+import com.google.adk.sessions.Session;
+import com.google.genai.types.Content;
+import com.google.genai.types.FunctionCall;
+import com.google.genai.types.FunctionResponse;
+import com.google.genai.types.Part;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Final-answer cache for repeated questions ("weather in London", "time in Tokyo"), so a hit skips
+ * the model → tool → model cycle entirely.
+ *
+ * <p>Keys combine the agent name, the versions of the registered tool data and the full user input
+ * normalized the same way as {@code normalizeCity}/{@code sanitizeInput}. Because the key carries no
+ * conversation, only turns that stand on their own are cached: the first turn of a session, or a turn
+ * whose tool arguments all appear in the input itself ("weather in London", not "and there?").
+ * Every tool called must also have a registered freshness policy and must not have answered from a
+ * stale fallback ({@code "stale": "true"} in its response). The entry expires at the earliest expiry
+ * computed from each tool call's event timestamp. The cache is LRU-bounded by entry count.
+ *
+ * <p>{@link #respond} serves a hit and still records the question and answer in the session, so
+ * follow-up turns see an unbroken history.
+ */
+public final class ResponseCache {
+
+    private static final Pattern LINE_BREAKS = Pattern.compile("[\\r\\n]");
+    private static final Pattern MARKS_AND_PUNCTUATION = Pattern.compile("(\\p{IsM}+|\\p{IsP}+)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /** When data returned by a tool stops being fresh, given when it was read. */
+    public interface Freshness {
+        Instant expiresAt(Instant readAt);
+    }
+
+    private record Policy(String version, Freshness freshness) {}
+
+    private record Entry(String answer, Instant expiresAt) {}
+
+    private final String agentName;
+    private final String dataVersions;
+    private final Map<String, Policy> policies;
+    private final Map<String, Entry> entries;
+
+    private ResponseCache(Builder builder) {
+        this.agentName = builder.agentName;
+        this.policies = Map.copyOf(builder.policies);
+        this.dataVersions = dataVersions(builder.policies);
+        int maxEntries = builder.maxEntries;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static Builder builder(String agentName) {
+        return new Builder(agentName);
+    }
+
+    public static Freshness ttl(Duration ttl) {
+        return readAt -> readAt.plus(ttl);
+    }
+
+    /** For clock-derived answers ("the time is 14:05"): valid until the minute rolls over. */
+    public static Freshness untilNextMinute() {
+        return readAt -> readAt.truncatedTo(ChronoUnit.MINUTES).plus(1, ChronoUnit.MINUTES);
+    }
+
+    /** Cached final answer for {@code userInput}, if one is still fresh. */
+    public Optional<String> get(String userInput) {
+        String key = key(userInput);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (!Instant.now().isBefore(entry.expiresAt())) {
+                entries.remove(key);
+                return Optional.empty();
+            }
+            return Optional.of(entry.answer());
+        }
+    }
+
+    /**
+     * Answers {@code userInput} from cache, or runs the turn and offers it to the cache. A hit is
+     * appended to the session as a user and a model event, exactly as a live turn would leave it.
+     */
+    public void respond(Runner runner, Session session, String userId, String userInput,
+            boolean firstTurn, Consumer<String> out) {
+        Optional<String> cached = get(userInput);
+        if (cached.isPresent()) {
+            String invocationId = "e-" + UUID.randomUUID();
+            runner.sessionService().appendEvent(session, textEvent(invocationId, "user", "user", userInput))
+                    .blockingGet();
+            runner.sessionService().appendEvent(session, textEvent(invocationId, agentName, "model", cached.get()))
+                    .blockingGet();
+            out.accept(cached.get());
+            return;
+        }
+
+        Content userMsg = Content.fromParts(Part.fromText(userInput));
+        List<Event> turn = new ArrayList<>();
+        runner.runAsync(userId, session.id(), userMsg).blockingForEach(event -> {
+            out.accept(event.stringifyContent());
+            turn.add(event);
+        });
+        put(userInput, turn, firstTurn);
+    }
+
+    /** Caches the final answer of a completed turn if it is eligible; returns whether it was cached. */
+    public boolean put(String userInput, List<Event> turnEvents, boolean firstTurn) {
+        String normalizedInput = " " + normalize(userInput) + " ";
+        Instant expiresAt = null;
+        StringBuilder answer = new StringBuilder();
+
+        for (Event event : turnEvents) {
+            for (FunctionCall call : event.functionCalls()) {
+                Policy policy = policies.get(call.name().orElse(""));
+                if (policy == null) {
+                    return false;
+                }
+                if (!firstTurn && !argsComeFromInput(call, normalizedInput)) {
+                    return false;
+                }
+                Instant toolExpiry = policy.freshness().expiresAt(Instant.ofEpochMilli(event.timestamp()));
+                if (expiresAt == null || toolExpiry.isBefore(expiresAt)) {
+                    expiresAt = toolExpiry;
+                }
+            }
+            for (FunctionResponse response : event.functionResponses()) {
+                Object stale = response.response().map(r -> r.get("stale")).orElse(null);
+                if (stale != null && Boolean.parseBoolean(String.valueOf(stale))) {
+                    return false;
+                }
+            }
+            if (event.finalResponse()) {
+                String text = event.stringifyContent();
+                if (!text.isBlank()) {
+                    if (answer.length() > 0) answer.append('\n');
+                    answer.append(text);
+                }
+            }
+        }
+
+        if (expiresAt == null || answer.length() == 0 || !Instant.now().isBefore(expiresAt)) {
+            return false;
+        }
+        synchronized (entries) {
+            entries.put(key(userInput), new Entry(answer.toString(), expiresAt));
+        }
+        return true;
+    }
+
+    private static boolean argsComeFromInput(FunctionCall call, String normalizedInput) {
+        for (Object value : call.args().orElse(Map.of()).values()) {
+            String arg = normalize(String.valueOf(value));
+            if (!arg.isEmpty() && !normalizedInput.contains(" " + arg + " ")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Event textEvent(String invocationId, String author, String role, String text) {
+        return Event.builder()
+                .id(Event.generateEventId())
+                .invocationId(invocationId)
+                .author(author)
+                .content(Content.builder().role(role).parts(List.of(Part.fromText(text))).build())
+                .actions(EventActions.builder().build())
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    private String key(String userInput) {
+        return agentName + '|' + dataVersions + '|' + normalize(userInput);
+    }
+
+    // Same steps as sanitizeInput + normalizeCity, with the patterns compiled once for the hit path.
+    // No truncation: callers that cap input length (sanitizeInput) do so before the cache sees it.
+    static String normalize(String input) {
+        String s = LINE_BREAKS.matcher(input == null ? "" : input).replaceAll(" ").trim();
+        s = Normalizer.normalize(s, Normalizer.Form.NFD).toLowerCase();
+        s = MARKS_AND_PUNCTUATION.matcher(s).replaceAll("");
+        return WHITESPACE.matcher(s).replaceAll(" ").trim();
+    }
+
+    private static String dataVersions(Map<String, Policy> policies) {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(policies).forEach((tool, policy) ->
+                sb.append(tool).append('=').append(policy.version()).append(';'));
+        return sb.toString();
+    }
+
+    public static final class Builder {
+        private final String agentName;
+        private final Map<String, Policy> policies = new LinkedHashMap<>();
+        private int maxEntries = 1024;
+
+        private Builder(String agentName) {
+            this.agentName = agentName;
+        }
+
+        /**
+         * Marks a tool as cacheable. Bump {@code dataVersion} whenever the tool's data or output
+         * format changes so old answers stop matching.
+         */
+        public Builder tool(String toolName, String dataVersion, Freshness freshness) {
+            policies.put(toolName, new Policy(dataVersion, freshness));
+            return this;
+        }
+
+        public Builder maxEntries(int maxEntries) {
+            if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be >= 1");
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        public ResponseCache build() {
+            return new ResponseCache(this);
+        }
+    }
+}
@@ -1,17 +1,16 @@
 package agents.multitool;
 
+import agents.cache.ResponseCache;
+import agents.parallel.ParallelToolCalls;
 import com.google.adk.agents.BaseAgent;
 import com.google.adk.agents.LlmAgent;
-import com.google.adk.events.Event;
 import com.google.adk.runner.InMemoryRunner;
 import com.google.adk.sessions.Session;
 import com.google.adk.tools.Annotations.Schema;
 import com.google.adk.tools.FunctionTool;
-import com.google.genai.types.Content;
-import com.google.genai.types.Part;
-import io.reactivex.rxjava3.core.Flowable;
 import java.nio.charset.StandardCharsets;
 import java.text.Normalizer;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -23,6 +22,21 @@ public class MultiToolAgent {
     private static String USER_ID = "student";
     private static String NAME = "multi_tool_agent";
 
+    // Time and weather lookups are independent, so calls from one model turn run concurrently.
+    private static final ParallelToolCalls PARALLEL_TOOLS = ParallelToolCalls.builder()
+        .tool(MultiToolAgent.class, "getCurrentTime")
+        .tool(MultiToolAgent.class, "getWeather")
+        .maxConcurrency(4)
+        .turnTimeout(Duration.ofSeconds(15))
+        .build();
+
+    // Repeated questions are answered from cache; times are only good until the minute changes.
+    public static final ResponseCache RESPONSE_CACHE = ResponseCache.builder(NAME)
+        .tool("getCurrentTime", "v1", ResponseCache.untilNextMinute())
+        .tool("getWeather", "stub-v1", ResponseCache.ttl(Duration.ofHours(1)))
+        .maxEntries(1024)
+        .build();
+
     // The run your agent with Dev UI, the ROOT_AGENT should be a global public static final variable.
     public static final BaseAgent ROOT_AGENT = initAgent();
 
@@ -37,6 +51,8 @@ public class MultiToolAgent {
             .tools(
                 FunctionTool.create(MultiToolAgent.class, "getCurrentTime"),
                 FunctionTool.create(MultiToolAgent.class, "getWeather"))
+            .afterModelCallback(PARALLEL_TOOLS::afterModel)
+            .beforeToolCallback(PARALLEL_TOOLS::beforeTool)
             .build();
     }
 
@@ -101,6 +117,7 @@ public class MultiToolAgent {
                 .createSession(NAME, USER_ID)
                 .blockingGet();
 
+        boolean firstTurn = true;
         try (Scanner scanner = new Scanner(System.in, StandardCharsets.UTF_8)) {
             while (true) {
                 System.out.print("\nYou > ");
@@ -110,11 +127,9 @@ public class MultiToolAgent {
                     break;
                 }
 
-                Content userMsg = Content.fromParts(Part.fromText(userInput));
-                Flowable<Event> events = runner.runAsync(USER_ID, session.id(), userMsg);
-
                 System.out.print("\nAgent > ");
-                events.blockingForEach(event -> System.out.println(event.stringifyContent()));
+                RESPONSE_CACHE.respond(runner, session, USER_ID, userInput, firstTurn, System.out::println);
+                firstTurn = false;
             }
         }
     }
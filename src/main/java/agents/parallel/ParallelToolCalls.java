@@ -0,0 +1,327 @@
+package agents.parallel;
+
+import com.google.adk.agents.CallbackContext;
+import com.google.adk.agents.InvocationContext;
+import com.google.adk.models.LlmResponse;
+import com.google.adk.tools.Annotations.Schema;
+import com.google.adk.tools.BaseTool;
+import com.google.adk.tools.ToolContext;
+import com.google.genai.types.Part;
+import io.reactivex.rxjava3.core.Maybe;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the independent function calls of a single model turn concurrently.
+ *
+ * <p>ADK executes the function calls of one response one after another. This dispatcher hooks the
+ * agent's after-model callback to start every registered call of the turn at once, then answers
+ * each call from its before-tool callback with the already-running result. ADK still assembles
+ * the function responses in call order, so ordering is preserved; turn latency becomes the
+ * slowest call instead of the sum. Calls to tools that are not registered (e.g. ones with side
+ * effects that must stay ordered) run normally.
+ *
+ * <p>Wire it into an agent with:
+ * <pre>
+ *   .afterModelCallback(PARALLEL::afterModel)
+ *   .beforeToolCallback(PARALLEL::beforeTool)
+ * </pre>
+ */
+public final class ParallelToolCalls {
+
+    private static final ExecutorService EXECUTOR = newExecutor();
+
+    private final Map<String, Method> tools;
+    private final int maxConcurrency;
+    private final Duration turnTimeout;
+    private final ConcurrentHashMap<String, Turn> turns = new ConcurrentHashMap<>();
+
+    private ParallelToolCalls(Builder builder) {
+        this.tools = Map.copyOf(builder.tools);
+        this.maxConcurrency = builder.maxConcurrency;
+        this.turnTimeout = builder.turnTimeout;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** After-model callback: start every registered call of the response. Never alters the response. */
+    public Maybe<LlmResponse> afterModel(CallbackContext callbackContext, LlmResponse response) {
+        List<Call> calls = new ArrayList<>();
+        response.content()
+                .flatMap(c -> c.parts())
+                .ifPresent(parts -> {
+                    for (Part part : parts) {
+                        part.functionCall()
+                                .filter(fc -> fc.name().isPresent())
+                                .ifPresent(fc -> calls.add(new Call(fc.name().get(), fc.args().orElse(Map.of()))));
+                    }
+                });
+        start(callbackContext.invocationId(), calls);
+        return Maybe.empty();
+    }
+
+    /** Before-tool callback: hand back the prefetched result, or defer to normal execution. */
+    public Maybe<Map<String, Object>> beforeTool(
+            InvocationContext invocationContext,
+            BaseTool tool,
+            Map<String, Object> args,
+            ToolContext toolContext) {
+        Map<String, Object> result = await(invocationContext.invocationId(), tool.name(), args);
+        return result == null ? Maybe.empty() : Maybe.just(result);
+    }
+
+    record Call(String name, Map<String, Object> args) {}
+
+    /** Starts the registered calls of one model response; a no-op unless there are at least two. */
+    void start(String invocationId, List<Call> calls) {
+        sweepExpiredTurns();
+        List<Call> registered = calls.stream().filter(c -> tools.containsKey(c.name())).toList();
+        // A single call gains nothing from prefetching; let ADK run it as usual.
+        if (registered.size() < 2) {
+            return;
+        }
+
+        Turn turn = new Turn(System.nanoTime() + turnTimeout.toNanos(), new Semaphore(maxConcurrency));
+        for (Call call : registered) {
+            Method method = tools.get(call.name());
+            Future<Map<String, Object>> future = EXECUTOR.submit(() -> {
+                turn.permits.acquire();
+                try {
+                    return invoke(method, call.args());
+                } finally {
+                    turn.permits.release();
+                }
+            });
+            turn.add(key(call.name(), call.args()), future);
+        }
+
+        Turn previous = turns.put(invocationId, turn);
+        if (previous != null) {
+            previous.cancelAll();
+        }
+    }
+
+    /** Result of a prefetched call, waiting up to the turn deadline; null when ADK should run the tool itself. */
+    Map<String, Object> await(String invocationId, String toolName, Map<String, Object> args) {
+        Turn turn = turns.get(invocationId);
+        if (turn == null) {
+            return null;
+        }
+        Future<Map<String, Object>> future = turn.take(key(toolName, args));
+        if (turn.isDrained()) {
+            turns.remove(invocationId, turn);
+        }
+        if (future == null) {
+            // After a timeout every remaining registered call of the turn fails fast instead of running late.
+            return turn.isCancelled() && tools.containsKey(toolName) ? timedOut(toolName) : null;
+        }
+
+        try {
+            long remaining = turn.deadlineNanos - System.nanoTime();
+            return future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            // Turn budget exhausted: stop what is still running but keep the turn, so the remaining
+            // calls of this response are answered with the same error rather than re-run by ADK.
+            future.cancel(true);
+            turn.cancelRunning();
+            return timedOut(toolName);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return error("Tool '" + toolName + "' failed: " + cause.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            turn.cancelRunning();
+            return error("Tool '" + toolName + "' was interrupted.");
+        }
+    }
+
+    private static Map<String, Object> timedOut(String toolName) {
+        return error("Tool '" + toolName + "' timed out for this turn.");
+    }
+
+    private void sweepExpiredTurns() {
+        long now = System.nanoTime();
+        turns.entrySet().removeIf(e -> {
+            if (now - e.getValue().deadlineNanos > 0) {
+                e.getValue().cancelAll();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private static Map<String, Object> invoke(Method method, Map<String, Object> args) throws Exception {
+        // Builder.tool only admits String parameters with @Schema names, so this mirrors FunctionTool exactly.
+        Parameter[] params = method.getParameters();
+        Object[] values = new Object[params.length];
+        for (int i = 0; i < params.length; i++) {
+            Object raw = args.get(params[i].getAnnotation(Schema.class).name());
+            values[i] = raw == null ? null : String.valueOf(raw);
+        }
+        Object result;
+        try {
+            result = method.invoke(null, values);
+        } catch (InvocationTargetException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+        if (result instanceof Map<?, ?> m) {
+            return copyOf(m);
+        }
+        Map<String, Object> wrapped = new LinkedHashMap<>();
+        wrapped.put("result", result);
+        return wrapped;
+    }
+
+    private static Map<String, Object> copyOf(Map<?, ?> source) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        source.forEach((k, v) -> copy.put(String.valueOf(k), v));
+        return copy;
+    }
+
+    private static String key(String name, Map<String, Object> args) {
+        // Keyed by name and arguments: the model does not always supply call ids before tool dispatch.
+        return name + (args == null ? Map.of() : new TreeMap<>(args));
+    }
+
+    private static Map<String, Object> error(String report) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", "error");
+        result.put("report", report);
+        return result;
+    }
+
+    private static ExecutorService newExecutor() {
+        // Virtual threads when the runtime has them (Java 21+); the build targets 17, so look them up reflectively.
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger seq = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "parallel-tool-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private static final class Turn {
+        final long deadlineNanos;
+        final Semaphore permits;
+        private final Map<String, Deque<Future<Map<String, Object>>>> pending = new HashMap<>();
+        private boolean cancelled = false;
+
+        Turn(long deadlineNanos, Semaphore permits) {
+            this.deadlineNanos = deadlineNanos;
+            this.permits = permits;
+        }
+
+        synchronized void add(String key, Future<Map<String, Object>> future) {
+            pending.computeIfAbsent(key, k -> new ArrayDeque<>()).add(future);
+        }
+
+        synchronized Future<Map<String, Object>> take(String key) {
+            Deque<Future<Map<String, Object>>> queue = pending.get(key);
+            if (queue == null) return null;
+            Future<Map<String, Object>> future = queue.poll();
+            if (queue.isEmpty()) pending.remove(key);
+            return future;
+        }
+
+        synchronized boolean isDrained() {
+            return pending.isEmpty();
+        }
+
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        /** Cancels everything still running; remaining calls then resolve to the timeout error. */
+        synchronized void cancelRunning() {
+            cancelled = true;
+            pending.values().forEach(q -> q.forEach(f -> f.cancel(true)));
+        }
+
+        /** Cancels and forgets the turn (superseded or swept). */
+        synchronized void cancelAll() {
+            cancelRunning();
+            pending.clear();
+        }
+    }
+
+    public static final class Builder {
+        private final Map<String, Method> tools = new LinkedHashMap<>();
+        private int maxConcurrency = 4;
+        private Duration turnTimeout = Duration.ofSeconds(15);
+
+        private Builder() {}
+
+        /**
+         * Registers a public static tool method, mirroring {@code FunctionTool.create(Class, String)}.
+         * Only methods taking {@code String} parameters that carry a {@code @Schema} name and returning a
+         * {@code Map} are accepted; anything else is rejected here rather than failing mid-turn.
+         */
+        public Builder tool(Class<?> clazz, String methodName) {
+            for (Method m : clazz.getMethods()) {
+                if (m.getName().equals(methodName) && Modifier.isStatic(m.getModifiers())) {
+                    checkSupported(m);
+                    tools.put(methodName, m);
+                    return this;
+                }
+            }
+            throw new IllegalArgumentException(
+                    "No public static method " + methodName + " on " + clazz.getName());
+        }
+
+        private static void checkSupported(Method m) {
+            if (!Map.class.isAssignableFrom(m.getReturnType())) {
+                throw new IllegalArgumentException(m.getName() + " must return a Map to run in parallel.");
+            }
+            for (Parameter p : m.getParameters()) {
+                Schema schema = p.getAnnotation(Schema.class);
+                if (p.getType() != String.class || schema == null || schema.name().isEmpty()) {
+                    throw new IllegalArgumentException(m.getName() + " parameter " + p.getName()
+                            + " must be a String with a @Schema name to run in parallel.");
+                }
+            }
+        }
+
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency must be >= 1");
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        public Builder turnTimeout(Duration turnTimeout) {
+            this.turnTimeout = turnTimeout;
+            return this;
+        }
+
+        public ParallelToolCalls build() {
+            return new ParallelToolCalls(this);
+        }
+    }
+}
@@ -3,21 +3,21 @@ package agents.team;
 import agents.weather.WeatherAgent;
 import agents.weather.OpenMeteoTool;
 import agents.etiquette.EtiquetteAgent;
+import agents.cache.ResponseCache;
+import agents.parallel.ParallelToolCalls;
 import com.google.adk.agents.BaseAgent;
 import com.google.adk.agents.LlmAgent;
-import com.google.adk.events.Event;
 import com.google.adk.runner.InMemoryRunner;
 import com.google.adk.sessions.Session;
 import com.google.adk.tools.Annotations.Schema;
 import com.google.adk.tools.FunctionTool;
-import com.google.genai.types.Content;
-import com.google.genai.types.Part;
-import io.reactivex.rxjava3.core.Flowable;
 import java.nio.charset.StandardCharsets;
 import java.text.Normalizer;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
 
 public class WeatherTeamAgent {
 
@@ -27,6 +27,30 @@ public class WeatherTeamAgent {
     // Simple session memory for personalization (preferred city per user).
     private static final ConcurrentHashMap<String, String> preferredCity = new ConcurrentHashMap<>();
 
+    // Read-only tools may run concurrently within a model turn (e.g. weather for several cities).
+    // The preferred-city tools stay sequential so a save is never raced by a lookup.
+    private static final ParallelToolCalls PARALLEL_TOOLS = ParallelToolCalls.builder()
+            .tool(EtiquetteAgent.class, "greet")
+            .tool(EtiquetteAgent.class, "farewell")
+            .tool(WeatherAgent.class, "getWeather")
+            .tool(OpenMeteoTool.class, "getCurrentWeather")
+            .maxConcurrency(4)
+            .turnTimeout(Duration.ofSeconds(15))
+            .build();
+
+    // Final answers for repeated questions. Live weather is reused for at most one Open-Meteo update
+    // interval (15 minutes); the preferred-city tools depend on per-user state and are not cacheable.
+    public static final ResponseCache RESPONSE_CACHE = ResponseCache.builder(NAME)
+            .tool("greet", "v1", ResponseCache.ttl(Duration.ofHours(1)))
+            .tool("farewell", "v1", ResponseCache.ttl(Duration.ofHours(1)))
+            .tool("getWeather", "stub-v1", ResponseCache.ttl(Duration.ofHours(1)))
+            .tool("getCurrentWeather", "open-meteo-v1", ResponseCache.ttl(OpenMeteoTool.CURRENT_INTERVAL))
+            .maxEntries(1024)
+            .build();
+
+    // Guardrail applied to every user message, here and by AgentCliRunner; "BLOCKED" means refuse.
+    public static final UnaryOperator<String> INPUT_FILTER = WeatherTeamAgent::sanitizeInput;
+
     // Exposed for Dev UI discovery.
     public static final BaseAgent ROOT_AGENT = initAgent();
 
@@ -50,6 +74,8 @@ public class WeatherTeamAgent {
                         FunctionTool.create(WeatherTeamAgent.class, "setPreferredCity"),
                         FunctionTool.create(WeatherTeamAgent.class, "getPreferredCityWeather")
                 )
+                .afterModelCallback(PARALLEL_TOOLS::afterModel)
+                .beforeToolCallback(PARALLEL_TOOLS::beforeTool)
                 .build();
     }
 
@@ -103,6 +129,7 @@ public class WeatherTeamAgent {
 
         Session session = runner.sessionService().createSession(NAME, USER_ID).blockingGet();
 
+        boolean firstTurn = true;
         try (Scanner scanner = new Scanner(System.in, StandardCharsets.UTF_8)) {
             while (true) {
                 System.out.print("\nYou > ");
@@ -118,11 +145,9 @@ public class WeatherTeamAgent {
                     continue;
                 }
 
-                Content userMsg = Content.fromParts(Part.fromText(filtered));
-                Flowable<Event> events = runner.runAsync(USER_ID, session.id(), userMsg);
-
                 System.out.print("\nAgent > ");
-                events.blockingForEach(event -> System.out.println(event.stringifyContent()));
+                RESPONSE_CACHE.respond(runner, session, USER_ID, filtered, firstTurn, System.out::println);
+                firstTurn = false;
             }
         }
     }
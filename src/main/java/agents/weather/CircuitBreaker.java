@@ -0,0 +1,77 @@
+package agents.weather;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker: closed → open after {@code failureThreshold} failed calls,
+ * open → half-open once {@code openDuration} has passed, where exactly one trial call is let through.
+ * The trial's outcome closes the breaker again or re-opens it.
+ */
+final class CircuitBreaker {
+
+    /** How a call that passed {@link #tryAcquire()} ended. */
+    enum Outcome {
+        SUCCESS,
+        FAILURE,
+        /** Says nothing about upstream health (interrupted, rate limited); only frees a half-open trial. */
+        IGNORED
+    }
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private int consecutiveFailures = 0;
+    private boolean open = false;
+    private long openUntilNanos = 0;
+    private boolean trialInFlight = false;
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /** Whether a call may go upstream; every {@code true} must be followed by one {@link #record}. */
+    synchronized boolean tryAcquire() {
+        if (!open) return true;
+        if (nanoClock.getAsLong() - openUntilNanos < 0) return false;
+        // Half-open: let exactly one trial call through to probe the upstream.
+        if (trialInFlight) return false;
+        trialInFlight = true;
+        return true;
+    }
+
+    synchronized void record(Outcome outcome) {
+        switch (outcome) {
+            case SUCCESS -> {
+                consecutiveFailures = 0;
+                open = false;
+                trialInFlight = false;
+            }
+            case FAILURE -> {
+                consecutiveFailures++;
+                if (trialInFlight || consecutiveFailures >= failureThreshold) {
+                    open = true;
+                    openUntilNanos = nanoClock.getAsLong() + openNanos;
+                }
+                trialInFlight = false;
+            }
+            case IGNORED -> trialInFlight = false;
+        }
+    }
+
+    synchronized State state() {
+        if (!open) return State.CLOSED;
+        return nanoClock.getAsLong() - openUntilNanos < 0 ? State.OPEN : State.HALF_OPEN;
+    }
+
+    synchronized void reset() {
+        consecutiveFailures = 0;
+        open = false;
+        trialInFlight = false;
+    }
+}
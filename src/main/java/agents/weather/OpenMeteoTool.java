@@ -2,19 +2,39 @@ package agents.weather;
 
 import com.google.adk.tools.Annotations.Schema;
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class OpenMeteoTool {
 
-    private static final HttpClient http = HttpClient.newHttpClient();
+    /** How often Open-Meteo updates current conditions (the response's {@code current.interval}, 900 s). */
+    public static final Duration CURRENT_INTERVAL = Duration.ofMinutes(15);
+
+    // Overridable (system property, then environment) so the weather path can run against a local stub.
+    private static final String DEFAULT_GEOCODING_URL = "https://geocoding-api.open-meteo.com";
+    private static final String DEFAULT_FORECAST_URL = "https://api.open-meteo.com";
+
+    private static String geocodingBaseUrl() {
+        return baseUrl("openmeteo.geocoding.url", "OPEN_METEO_GEOCODING_URL", DEFAULT_GEOCODING_URL);
+    }
+
+    private static String forecastBaseUrl() {
+        return baseUrl("openmeteo.forecast.url", "OPEN_METEO_FORECAST_URL", DEFAULT_FORECAST_URL);
+    }
+
+    private static String baseUrl(String property, String env, String fallback) {
+        String url = System.getProperty(property);
+        if (url == null || url.isBlank()) url = System.getenv(env);
+        if (url == null || url.isBlank()) url = fallback;
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
 
     private static String normalizeCity(String city) {
         return Normalizer.normalize(city == null ? "" : city, Normalizer.Form.NFD)
@@ -40,10 +60,13 @@ public class OpenMeteoTool {
         }
 
         try {
+            // One deadline for both fetches, so the whole tool call stays inside the turn timeout.
+            long deadline = ResilientHttp.deadline();
+
             // 1) Geocode the city -> lat/lon
-            String geoUrl = "https://geocoding-api.open-meteo.com/v1/search?count=1&language=en&name="
+            String geoUrl = geocodingBaseUrl() + "/v1/search?count=1&language=en&name="
                     + uriEncode(city);
-            String geoJson = fetch(geoUrl);
+            String geoJson = fetch(geoUrl, deadline).text();
             Double lat = extractDouble(geoJson, "\"latitude\":\\s*([0-9.-]+)");
             Double lon = extractDouble(geoJson, "\"longitude\":\\s*([0-9.-]+)");
             String resolvedName = extractString(geoJson, "\"name\":\\s*\"([^\"]+)\"");
@@ -55,10 +78,11 @@ public class OpenMeteoTool {
             }
 
             // 2) Query current weather
-            String weatherUrl = "https://api.open-meteo.com/v1/forecast?latitude=" + lat
+            String weatherUrl = forecastBaseUrl() + "/v1/forecast?latitude=" + lat
                     + "&longitude=" + lon
                     + "&current=temperature_2m,wind_speed_10m,weather_code";
-            String wxJson = fetch(weatherUrl);
+            ResilientHttp.Body wxBody = fetch(weatherUrl, deadline);
+            String wxJson = wxBody.text();
 
             Double tempC = extractDouble(wxJson, "\"temperature_2m\":\\s*([0-9.-]+)");
             Double wind = extractDouble(wxJson, "\"wind_speed_10m\":\\s*([0-9.-]+)");
@@ -76,6 +100,15 @@ public class OpenMeteoTool {
             String report = String.format(
                     "%s: %s. Temperature %.1f°C, wind %.1f m/s.",
                     place, cond, tempC, wind);
+            if (wxBody.stale()) {
+                // Upstream is unhealthy; tell the model this is the last good reading, not live data.
+                report += " (Cached reading from "
+                        + DateTimeFormatter.ofPattern("HH:mm 'UTC'")
+                                .format(Instant.ofEpochMilli(wxBody.fetchedAtMillis()).atOffset(ZoneOffset.UTC))
+                        + "; live service currently unavailable.)";
+                // Flag it too, so response caches don't keep replaying it after the upstream recovers.
+                return Map.of("status", "success", "report", report, "stale", "true");
+            }
 
             return Map.of("status", "success", "report", report);
         } catch (Exception e) {
@@ -94,16 +127,9 @@ public class OpenMeteoTool {
         }
     }
 
-    private static String fetch(String url) throws IOException, InterruptedException {
-        HttpRequest req = HttpRequest.newBuilder(URI.create(url))
-                .GET()
-                .header("Accept", "application/json")
-                .build();
-        HttpResponse<String> resp = http.send(req, HttpResponse.BodyHandlers.ofString());
-        if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
-            return resp.body();
-        }
-        throw new IOException("HTTP " + resp.statusCode());
+    private static ResilientHttp.Body fetch(String url, long deadline) throws IOException, InterruptedException {
+        // Deadlines, hedging, retries and the circuit breaker live in ResilientHttp.
+        return ResilientHttp.get(url, deadline);
     }
 
     private static Double extractDouble(String json, String regex) {
@@ -0,0 +1,318 @@
+package agents.weather;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * GET helper for upstream weather APIs: per-request deadlines, budgeted hedged requests once an
+ * attempt outlives the observed p95, jittered retries that honour {@code Retry-After}, and a
+ * {@link CircuitBreaker} that serves the last good body (or fails fast) while the upstream is unhealthy.
+ * Breaker, p95 and hedge budget are tracked per upstream host.
+ */
+final class ResilientHttp {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(4);
+    // Budget for a whole tool call, however many fetches it makes; keep it under the per-turn timeout.
+    private static final Duration CALL_DEADLINE = Duration.ofSeconds(8);
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 1_000;
+
+    // Hedge delay follows the p95 of recent 2xx attempts, clamped to a sane window.
+    private static final int LATENCY_WINDOW = 128;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final long DEFAULT_HEDGE_MS = 500;
+    private static final long MIN_HEDGE_MS = 150;
+    private static final long MAX_HEDGE_MS = 2_000;
+
+    // Hedge budget: each attempt earns a fraction of a token and a hedge spends a whole one, so hedges
+    // stay at a few percent of traffic even when the upstream is slow for everyone.
+    private static final double HEDGE_TOKENS_PER_ATTEMPT = 0.05;
+    private static final double MAX_HEDGE_TOKENS = 10;
+
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private static final int STALE_CACHE_SIZE = 256;
+    private static final Duration STALE_MAX_AGE = Duration.ofHours(1);
+
+    private static final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+
+    /** Response body plus whether it came from the stale cache rather than the network. */
+    record Body(String text, long fetchedAtMillis, boolean stale) {}
+
+    private record CachedBody(String text, long fetchedAtMillis) {}
+
+    private static final Map<String, CachedBody> lastGood =
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedBody> eldest) {
+                    return size() > STALE_CACHE_SIZE;
+                }
+            };
+
+    // Breaker, latency window and hedge budget are per upstream host: geocoding and forecast are
+    // separate services that fail and slow down independently.
+    private static final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    private ResilientHttp() {}
+
+    /** Deadline for a call made now; pass it to every {@link #get} serving the same tool call. */
+    static long deadline() {
+        return System.nanoTime() + CALL_DEADLINE.toNanos();
+    }
+
+    static Body get(String url) throws IOException, InterruptedException {
+        return get(url, deadline());
+    }
+
+    /** GETs {@code url}, giving up at {@code deadlineNanos} ({@link System#nanoTime()} based). */
+    static Body get(String url, long deadlineNanos) throws IOException, InterruptedException {
+        HostState host = host(URI.create(url));
+        if (deadlineNanos - System.nanoTime() <= 0) {
+            return staleOrThrow(url, new HttpTimeoutException("Deadline exceeded for " + url));
+        }
+        if (!host.breaker.tryAcquire()) {
+            return staleOrThrow(url, new IOException("Upstream circuit open; failing fast."));
+        }
+
+        // Whatever happens below, the breaker hears exactly one outcome for this call.
+        CircuitBreaker.Outcome outcome = CircuitBreaker.Outcome.FAILURE;
+        try {
+            IOException last = null;
+            long retryAfterMs = 0;
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                if (attempt > 1) {
+                    long waitMs = Math.max(jitteredBackoffMs(attempt), retryAfterMs);
+                    if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs) >= deadlineNanos) break;
+                    Thread.sleep(waitMs);
+                }
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0) break;
+
+                long started = System.nanoTime();
+                HttpResponse<String> resp;
+                try {
+                    resp = hedgedAttempt(host, url, remaining);
+                } catch (IOException e) {
+                    last = e;
+                    outcome = CircuitBreaker.Outcome.FAILURE;
+                    retryAfterMs = 0;
+                    continue;
+                }
+
+                int status = resp.statusCode();
+                if (isSuccess(resp)) {
+                    host.recordLatency(System.nanoTime() - started);
+                    outcome = CircuitBreaker.Outcome.SUCCESS;
+                    long now = System.currentTimeMillis();
+                    synchronized (lastGood) {
+                        lastGood.put(url, new CachedBody(resp.body(), now));
+                    }
+                    return new Body(resp.body(), now, false);
+                }
+                last = new IOException("HTTP " + status);
+                if (status == 429) {
+                    // Rate limiting is the upstream protecting itself, not failing: wait as told, don't trip.
+                    outcome = CircuitBreaker.Outcome.IGNORED;
+                    retryAfterMs = retryAfterMillis(resp);
+                    continue;
+                }
+                if (status < 500) {
+                    // The upstream answered; a client error is not a health problem and won't improve on retry.
+                    outcome = CircuitBreaker.Outcome.SUCCESS;
+                    throw last;
+                }
+                outcome = CircuitBreaker.Outcome.FAILURE;
+                retryAfterMs = 0;
+            }
+            return staleOrThrow(url, last != null ? last : new HttpTimeoutException("Deadline exceeded for " + url));
+        } catch (InterruptedException e) {
+            outcome = CircuitBreaker.Outcome.IGNORED;
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = CircuitBreaker.Outcome.FAILURE;
+            throw e;
+        } finally {
+            host.breaker.record(outcome);
+        }
+    }
+
+    /** Clears every host's breaker, latency window and hedge budget, and the last-good bodies. */
+    static void reset() {
+        hosts.clear();
+        synchronized (lastGood) {
+            lastGood.clear();
+        }
+    }
+
+    static CircuitBreaker.State breakerState(String url) {
+        return host(URI.create(url)).breaker.state();
+    }
+
+    private static HostState host(URI uri) {
+        return hosts.computeIfAbsent(String.valueOf(uri.getAuthority()), authority -> new HostState());
+    }
+
+    private static boolean isSuccess(HttpResponse<?> resp) {
+        return resp.statusCode() >= 200 && resp.statusCode() < 300;
+    }
+
+    private static HttpResponse<String> hedgedAttempt(HostState host, String url, long remainingNanos)
+            throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + remainingNanos;
+        HttpRequest req = HttpRequest.newBuilder(URI.create(url))
+                .GET()
+                .timeout(Duration.ofNanos(Math.min(REQUEST_TIMEOUT.toNanos(), remainingNanos)))
+                .header("Accept", "application/json")
+                .build();
+
+        host.creditHedgeBudget();
+        List<CompletableFuture<HttpResponse<String>>> inFlight = new ArrayList<>(2);
+        inFlight.add(http.sendAsync(req, HttpResponse.BodyHandlers.ofString()));
+        try {
+            HttpResponse<String> resp = awaitFirst(inFlight, Math.min(host.hedgeDelayNanos(), remainingNanos));
+            if (resp == null && deadline - System.nanoTime() > 0) {
+                if (host.tryTakeHedgeToken()) {
+                    inFlight.add(http.sendAsync(req, HttpResponse.BodyHandlers.ofString()));
+                }
+                resp = awaitFirst(inFlight, deadline - System.nanoTime());
+            }
+            if (resp == null) {
+                throw new HttpTimeoutException("Deadline exceeded for " + url);
+            }
+            return resp;
+        } finally {
+            inFlight.forEach(f -> f.cancel(true));
+        }
+    }
+
+    /**
+     * First 2xx response, null on timeout, or — once every attempt has finished without a 2xx — the
+     * last non-2xx response, else the last failure. A 503 from the primary must not cut off a hedge
+     * that may still succeed.
+     */
+    private static HttpResponse<String> awaitFirst(
+            List<CompletableFuture<HttpResponse<String>>> futures, long timeoutNanos)
+            throws IOException, InterruptedException {
+        CompletableFuture<HttpResponse<String>> winner = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(futures.size());
+        AtomicReference<HttpResponse<String>> lastResponse = new AtomicReference<>();
+        for (CompletableFuture<HttpResponse<String>> f : futures) {
+            f.whenComplete((resp, err) -> {
+                if (err == null && isSuccess(resp)) {
+                    winner.complete(resp);
+                    return;
+                }
+                if (err == null) {
+                    lastResponse.set(resp);
+                }
+                if (pending.decrementAndGet() == 0) {
+                    HttpResponse<String> failed = lastResponse.get();
+                    if (failed != null) {
+                        winner.complete(failed);
+                    } else {
+                        winner.completeExceptionally(
+                                err instanceof CompletionException && err.getCause() != null ? err.getCause() : err);
+                    }
+                }
+            });
+        }
+        try {
+            return winner.get(Math.max(timeoutNanos, 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            throw new IOException(cause);
+        }
+    }
+
+    private static Body staleOrThrow(String url, IOException failure) throws IOException {
+        CachedBody cached;
+        synchronized (lastGood) {
+            cached = lastGood.get(url);
+        }
+        if (cached != null
+                && System.currentTimeMillis() - cached.fetchedAtMillis() <= STALE_MAX_AGE.toMillis()) {
+            return new Body(cached.text(), cached.fetchedAtMillis(), true);
+        }
+        throw failure;
+    }
+
+    private static long jitteredBackoffMs(int attempt) {
+        // Full jitter: uniform in [0, min(cap, base * 2^(attempt-2))].
+        long ceiling = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << (attempt - 2));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static long retryAfterMillis(HttpResponse<?> resp) {
+        // Only the delta-seconds form; an HTTP-date falls back to the jittered backoff.
+        return resp.headers().firstValue("Retry-After")
+                .map(String::trim)
+                .filter(v -> v.matches("\\d{1,6}"))
+                .map(v -> TimeUnit.SECONDS.toMillis(Long.parseLong(v)))
+                .orElse(0L);
+    }
+
+    /** Health and latency bookkeeping for one upstream authority (host:port). */
+    private static final class HostState {
+        private final CircuitBreaker breaker =
+                new CircuitBreaker(FAILURE_THRESHOLD, OPEN_DURATION, System::nanoTime);
+        private final long[] latencies = new long[LATENCY_WINDOW];
+        private int latencyCount = 0;
+        private int latencyNext = 0;
+        private double hedgeTokens = MAX_HEDGE_TOKENS;
+
+        synchronized void creditHedgeBudget() {
+            hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + HEDGE_TOKENS_PER_ATTEMPT);
+        }
+
+        synchronized boolean tryTakeHedgeToken() {
+            if (hedgeTokens < 1) return false;
+            hedgeTokens -= 1;
+            return true;
+        }
+
+        synchronized void recordLatency(long nanos) {
+            latencies[latencyNext] = nanos;
+            latencyNext = (latencyNext + 1) % LATENCY_WINDOW;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+        }
+
+        synchronized long hedgeDelayNanos() {
+            if (latencyCount < MIN_LATENCY_SAMPLES) {
+                return TimeUnit.MILLISECONDS.toNanos(DEFAULT_HEDGE_MS);
+            }
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            long p95 = sorted[(int) Math.ceil(0.95 * latencyCount) - 1];
+            return Math.max(TimeUnit.MILLISECONDS.toNanos(MIN_HEDGE_MS),
+                    Math.min(TimeUnit.MILLISECONDS.toNanos(MAX_HEDGE_MS), p95));
+        }
+    }
+}
@@ -1,14 +1,249 @@
 package com.example.agent;
 
+import agents.cache.ResponseCache;
+import com.google.adk.agents.BaseAgent;
+import com.google.adk.events.Event;
+import com.google.adk.runner.InMemoryRunner;
+import com.google.adk.sessions.Session;
+import com.google.adk.web.AdkWebServer;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import io.reactivex.rxjava3.core.Flowable;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single entry point for all agents.
+ *
+ * <pre>
+ *   AgentCliRunner --list
+ *   AgentCliRunner --agent weather-team [--mode cli|server] [--timing] [--unguarded]
+ *   AgentCliRunner --agent weather-team --train-cds agents.jsa
+ * </pre>
+ *
+ * Only the selected agent class is initialized (see {@link AgentRegistry}). {@code --train-cds}
+ * runs a warm-up of the selected agent in a child JVM with {@code -XX:ArchiveClassesAtExit},
+ * producing an AppCDS archive to pass back via {@code -XX:SharedArchiveFile} for faster cold starts.
+ *
+ * <p>The agent's {@code INPUT_FILTER} and {@code RESPONSE_CACHE} are applied by the CLI loop only; the
+ * ADK web server talks to the runner directly. Server mode therefore refuses an agent with an input
+ * filter unless {@code --unguarded} is given, and warns that its response cache is unused.
+ */
 public class AgentCliRunner {
-    public static void main(String[] args) {
-        System.out.println("Agent CLI Runner started.");
-        if (args != null && args.length > 0) {
-            System.out.println("Args: ");
-            for (int i = 0; i < args.length; i++) {
-                System.out.println("  [" + i + "]: " + args[i]);
+
+    private static final String USER_ID = "student";
+
+    public static void main(String[] args) throws Exception {
+        String agentName = null;
+        String mode = "cli";
+        String cdsArchive = null;
+        boolean timing = false;
+        boolean warmupOnly = false;
+        boolean unguarded = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--list" -> {
+                    AgentRegistry.names().forEach(System.out::println);
+                    return;
+                }
+                case "--agent" -> agentName = requireValue(args, ++i, "--agent");
+                case "--mode" -> mode = requireValue(args, ++i, "--mode");
+                case "--train-cds" -> cdsArchive = requireValue(args, ++i, "--train-cds");
+                case "--timing" -> timing = true;
+                case "--warmup-only" -> warmupOnly = true;
+                case "--unguarded" -> unguarded = true;
+                case "--help", "-h" -> {
+                    printUsage();
+                    return;
+                }
+                default -> {
+                    System.err.println("Unknown argument: " + args[i]);
+                    printUsage();
+                    System.exit(2);
+                }
+            }
+        }
+
+        if (agentName == null) {
+            printUsage();
+            System.exit(2);
+        }
+        if (!AgentRegistry.exists(agentName)) {
+            System.err.println("Unknown agent '" + agentName + "'. Known agents: "
+                    + String.join(", ", AgentRegistry.names()));
+            System.exit(2);
+        }
+        if (cdsArchive != null) {
+            System.exit(trainCdsArchive(agentName, Path.of(cdsArchive)));
+        }
+
+        BaseAgent agent = AgentRegistry.load(agentName);
+        switch (mode) {
+            case "cli" -> runCli(agent, AgentRegistry.inputFilter(agentName),
+                    AgentRegistry.responseCache(agentName), timing, warmupOnly);
+            case "server" -> {
+                if (!checkServerMode(agentName, unguarded)) {
+                    System.exit(2);
+                }
+                AdkWebServer.start(agent);
+            }
+            default -> {
+                System.err.println("Unknown mode '" + mode + "'. Use cli or server.");
+                System.exit(2);
+            }
+        }
+    }
+
+    private static void runCli(BaseAgent agent, UnaryOperator<String> inputFilter, ResponseCache cache,
+            boolean timing, boolean warmupOnly) {
+        InMemoryRunner runner = new InMemoryRunner(agent);
+        Session session = runner.sessionService().createSession(runner.appName(), USER_ID).blockingGet();
+        // Touch the request types so a training run archives them too.
+        Content.fromParts(Part.fromText("warm-up"));
+
+        if (timing) {
+            ProcessHandle.current().info().startInstant().ifPresent(start ->
+                    System.out.println("Ready in " + Duration.between(start, Instant.now()).toMillis()
+                            + " ms (JVM start to first prompt)."));
+        }
+        if (warmupOnly) {
+            return;
+        }
+
+        boolean firstTurn = true;
+        try (Scanner scanner = new Scanner(System.in, StandardCharsets.UTF_8)) {
+            while (true) {
+                System.out.print("\nYou > ");
+                if (!scanner.hasNextLine()) {
+                    break;
+                }
+                String userInput = scanner.nextLine();
+
+                if ("quit".equalsIgnoreCase(userInput)) {
+                    break;
+                }
+
+                userInput = inputFilter.apply(userInput);
+                if ("BLOCKED".equals(userInput)) {
+                    System.out.println("\nAgent > Your input appears unsafe or off-policy. Please rephrase.");
+                    continue;
+                }
+
+                System.out.print("\nAgent > ");
+                if (cache != null) {
+                    cache.respond(runner, session, USER_ID, userInput, firstTurn, System.out::println);
+                } else {
+                    Content userMsg = Content.fromParts(Part.fromText(userInput));
+                    Flowable<Event> events = runner.runAsync(USER_ID, session.id(), userMsg);
+                    events.blockingForEach(event -> System.out.println(event.stringifyContent()));
+                }
+                firstTurn = false;
+            }
+        }
+    }
+
+    private static boolean checkServerMode(String agentName, boolean unguarded) {
+        if (AgentRegistry.hasInputFilter(agentName)) {
+            if (!unguarded) {
+                System.err.println("Agent '" + agentName + "' has an INPUT_FILTER guardrail that the web server "
+                        + "does not apply. Use --mode cli, or pass --unguarded to serve it without the filter.");
+                return false;
+            }
+            System.err.println("Warning: serving '" + agentName + "' without its INPUT_FILTER guardrail.");
+        }
+        if (AgentRegistry.responseCache(agentName) != null) {
+            System.err.println("Warning: the RESPONSE_CACHE of '" + agentName
+                    + "' is only used in cli mode; every server request runs the model.");
+        }
+        return true;
+    }
+
+    private static int trainCdsArchive(String agentName, Path archive) throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        String classpath = System.getProperty("java.class.path");
+        // CDS only archives classes loaded from JARs; a class directory on the path aborts the dump.
+        for (String entry : classpath.split(File.pathSeparator)) {
+            if (!entry.isEmpty() && Files.isDirectory(Path.of(entry))) {
+                System.err.println("AppCDS needs a JAR-only classpath; '" + entry + "' is a directory. "
+                        + "Run from the packaged jar (mvn package) plus dependency jars.");
+                return 2;
+            }
+        }
+
+        // Train with this JVM's own flags so the archive matches how production runs are launched.
+        List<String> jvmFlags = trainingJvmFlags();
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmFlags);
+        command.add("-XX:ArchiveClassesAtExit=" + archive.toAbsolutePath());
+        command.add("-cp");
+        command.add(classpath);
+        command.add(AgentCliRunner.class.getName());
+        command.add("--agent");
+        command.add(agentName);
+        command.add("--warmup-only");
+        command.add("--timing");
+
+        System.out.println("Training run: " + String.join(" ", command));
+        int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+        if (exit != 0) {
+            System.err.println("Training run failed with exit code " + exit + ".");
+            return exit;
+        }
+        // The archive is only accepted with the classpath it was trained on, so print that exact one.
+        List<String> restart = new ArrayList<>();
+        restart.add(java);
+        restart.addAll(jvmFlags);
+        restart.add("-XX:SharedArchiveFile=" + archive.toAbsolutePath());
+        restart.add("-cp");
+        restart.add(classpath);
+        restart.add(AgentCliRunner.class.getName());
+        restart.add("--agent");
+        restart.add(agentName);
+        restart.add("--timing");
+        System.out.println("AppCDS archive written to " + archive.toAbsolutePath() + ". Start with:");
+        System.out.println("  " + String.join(" ", restart));
+        return 0;
+    }
+
+    /** This JVM's flags, minus those that would clash with dumping a new archive or bind a debug port twice. */
+    private static List<String> trainingJvmFlags() {
+        List<String> flags = new ArrayList<>();
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (arg.startsWith("-XX:SharedArchiveFile=") || arg.startsWith("-XX:ArchiveClassesAtExit=")
+                    || arg.startsWith("-Xshare:") || arg.startsWith("-agentlib:jdwp")) {
+                continue;
             }
+            flags.add(arg);
         }
+        return flags;
+    }
+
+    private static String requireValue(String[] args, int i, String flag) {
+        if (i >= args.length) {
+            System.err.println("Missing value for " + flag);
+            printUsage();
+            System.exit(2);
+        }
+        return args[i];
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: AgentCliRunner --list");
+        System.out.println("       AgentCliRunner --agent <name> [--mode cli|server] [--timing] [--unguarded]");
+        System.out.println("       AgentCliRunner --agent <name> --train-cds <archive.jsa>");
+        System.out.println("Agents: " + String.join(", ", AgentRegistry.names())
+                + " (or a fully qualified class with a static ROOT_AGENT)");
         System.out.println("Environment hint: run .\\env.bat on Windows or 'source .env' on bash to load keys.");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.example.agent;
+
+import agents.cache.ResponseCache;
+import com.google.adk.agents.BaseAgent;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Name → agent class lookup that never touches an agent class until it is selected.
+ *
+ * <p>Every agent builds its {@code ROOT_AGENT} in a static initializer ({@code FunctionTool.create}
+ * reflection, client setup), so the registry only holds class names. {@link #load(String)}
+ * initializes just the chosen class and reads its {@code ROOT_AGENT}.
+ */
+public final class AgentRegistry {
+
+    private static final Map<String, String> AGENTS = new LinkedHashMap<>();
+    // Classes initialized by load(); their static fields can be read without side effects.
+    private static final Set<String> LOADED = ConcurrentHashMap.newKeySet();
+
+    static {
+        AGENTS.put("hello-time", "com.example.agent.HelloTimeAgent");
+        AGENTS.put("multitool", "agents.multitool.MultiToolAgent");
+        AGENTS.put("weather-team", "agents.team.WeatherTeamAgent");
+        AGENTS.put("science-teacher", "samples.liveaudio.ScienceTeacherAgent");
+    }
+
+    private AgentRegistry() {}
+
+    public static Set<String> names() {
+        return AGENTS.keySet();
+    }
+
+    /** Registered class name for {@code name}, or {@code name} itself when it is a fully qualified class name. */
+    public static String className(String name) {
+        return AGENTS.getOrDefault(name, name);
+    }
+
+    /** Whether {@code name} resolves to a class with a static {@code ROOT_AGENT}, without initializing it. */
+    public static boolean exists(String name) {
+        try {
+            Class<?> clazz = Class.forName(className(name), false, AgentRegistry.class.getClassLoader());
+            return rootAgentField(clazz) != null;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /** Initializes the selected agent class and returns its {@code ROOT_AGENT}. */
+    public static BaseAgent load(String name) {
+        String className = className(name);
+        try {
+            Class<?> clazz = Class.forName(className, true, AgentRegistry.class.getClassLoader());
+            Field field = rootAgentField(clazz);
+            if (field == null) {
+                throw new IllegalArgumentException(className + " has no public static ROOT_AGENT field.");
+            }
+            BaseAgent agent = (BaseAgent) field.get(null);
+            LOADED.add(className);
+            return agent;
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException(
+                    "Unknown agent '" + name + "'. Known agents: " + String.join(", ", names()), e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read ROOT_AGENT of " + className, e);
+        }
+    }
+
+    /**
+     * The agent's optional static {@code RESPONSE_CACHE}. Reading a static field initializes its
+     * class, so this and the other optional lookups throw {@link IllegalStateException} before
+     * {@link #load(String)}.
+     */
+    public static ResponseCache responseCache(String name) {
+        return optionalStatic(name, "RESPONSE_CACHE", ResponseCache.class);
+    }
+
+    /**
+     * The agent's optional static {@code INPUT_FILTER} guardrail (identity when absent). A filter
+     * returns {@code "BLOCKED"} for input that must not reach the model.
+     */
+    @SuppressWarnings("unchecked")
+    public static UnaryOperator<String> inputFilter(String name) {
+        UnaryOperator<String> filter = optionalStatic(name, "INPUT_FILTER", UnaryOperator.class);
+        return filter != null ? filter : UnaryOperator.identity();
+    }
+
+    /** Whether the agent declares an {@code INPUT_FILTER}; call after {@link #load(String)}. */
+    public static boolean hasInputFilter(String name) {
+        return optionalStatic(name, "INPUT_FILTER", UnaryOperator.class) != null;
+    }
+
+    private static <T> T optionalStatic(String name, String fieldName, Class<T> type) {
+        String className = className(name);
+        if (!LOADED.contains(className)) {
+            throw new IllegalStateException("Load agent '" + name + "' before reading its " + fieldName + ".");
+        }
+        try {
+            Class<?> clazz = Class.forName(className, false, AgentRegistry.class.getClassLoader());
+            Field field = clazz.getField(fieldName);
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == type) {
+                return type.cast(field.get(null));
+            }
+        } catch (ClassNotFoundException | NoSuchFieldException | IllegalAccessException ignored) {
+        }
+        return null;
+    }
+
+    private static Field rootAgentField(Class<?> clazz) {
+        try {
+            Field field = clazz.getField("ROOT_AGENT");
+            if (Modifier.isStatic(field.getModifiers()) && BaseAgent.class.isAssignableFrom(field.getType())) {
+                return field;
+            }
+        } catch (NoSuchFieldException ignored) {
+        }
+        return null;
+    }
+}
@@ -0,0 +1,112 @@
+package agents.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.adk.events.Event;
+import com.google.adk.events.EventActions;
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ResponseCacheTest {
+
+    private static final String AGENT = "weather_agent";
+
+    private static ResponseCache cache() {
+        return ResponseCache.builder(AGENT)
+                .tool("getCurrentWeather", "v1", ResponseCache.ttl(Duration.ofMinutes(10)))
+                .tool("getCurrentTime", "v1", ResponseCache.untilNextMinute())
+                .build();
+    }
+
+    private static Event event(String author, long timestamp, Part part) {
+        return Event.builder()
+                .id(Event.generateEventId())
+                .invocationId("e-test")
+                .author(author)
+                .content(Content.builder().role("model").parts(List.of(part)).build())
+                .actions(EventActions.builder().build())
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private static List<Event> turn(String tool, Map<String, Object> args, Map<String, Object> response,
+            long callTimestamp, String answer) {
+        return List.of(
+                event(AGENT, callTimestamp, Part.fromFunctionCall(tool, args)),
+                event("user", callTimestamp, Part.fromFunctionResponse(tool, response)),
+                event(AGENT, System.currentTimeMillis(), Part.fromText(answer)));
+    }
+
+    private static List<Event> weatherTurn(String city, Map<String, Object> response) {
+        return turn("getCurrentWeather", Map.of("city", city), response, System.currentTimeMillis(),
+                "It is sunny in " + city + ".");
+    }
+
+    private static Map<String, Object> live() {
+        return Map.of("status", "success", "report", "Sunny, 21°C");
+    }
+
+    @Test
+    void cachesFirstTurnAndServesNormalizedRepeat() {
+        ResponseCache cache = cache();
+
+        assertTrue(cache.put("What's the weather in London?", weatherTurn("London", live()), true));
+
+        assertEquals("It is sunny in London.", cache.get("  what's the WEATHER in london ").orElse(null));
+    }
+
+    @Test
+    void rejectsTurnCallingUnregisteredTool() {
+        ResponseCache cache = cache();
+        List<Event> events = turn("getForecast", Map.of("city", "London"), live(),
+                System.currentTimeMillis(), "Rain tomorrow.");
+
+        assertFalse(cache.put("forecast for London", events, true));
+        assertTrue(cache.get("forecast for London").isEmpty());
+    }
+
+    @Test
+    void rejectsTurnServedFromStaleFallback() {
+        ResponseCache cache = cache();
+        Map<String, Object> stale = Map.of("status", "success", "report", "Sunny, 21°C", "stale", "true");
+
+        assertFalse(cache.put("weather in London", weatherTurn("London", stale), true));
+        assertTrue(cache.get("weather in London").isEmpty());
+    }
+
+    @Test
+    void laterTurnIsCachedOnlyWhenToolArgsComeFromInput() {
+        ResponseCache cache = cache();
+
+        assertFalse(cache.put("and there?", weatherTurn("Paris", live()), false));
+        assertTrue(cache.put("and the weather in Paris?", weatherTurn("Paris", live()), false));
+    }
+
+    @Test
+    void expiryCountsFromToolCallTimestamp() {
+        ResponseCache cache = cache();
+        long previousMinute = Instant.now().truncatedTo(ChronoUnit.MINUTES).minusSeconds(1).toEpochMilli();
+        List<Event> events = turn("getCurrentTime", Map.of("city", "Tokyo"),
+                Map.of("status", "success", "report", "It is 09:59"), previousMinute, "It is 09:59 in Tokyo.");
+
+        assertFalse(cache.put("time in Tokyo", events, true));
+    }
+
+    @Test
+    void keysOnFullInput() {
+        ResponseCache cache = cache();
+        String prefix = "weather please ".repeat(30);
+
+        assertTrue(cache.put(prefix + "in London", weatherTurn("London", live()), true));
+
+        assertTrue(cache.get(prefix + "in Paris").isEmpty());
+    }
+}
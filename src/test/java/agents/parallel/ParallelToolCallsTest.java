@@ -0,0 +1,109 @@
+package agents.parallel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.adk.tools.Annotations.Schema;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ParallelToolCallsTest {
+
+    private static final AtomicInteger running = new AtomicInteger();
+    private static final AtomicInteger peak = new AtomicInteger();
+
+    public static Map<String, String> slowEcho(
+            @Schema(name = "value", description = "Value to echo") String value,
+            @Schema(name = "millis", description = "How long to take") String millis) throws InterruptedException {
+        peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(Long.parseLong(millis));
+        } finally {
+            running.decrementAndGet();
+        }
+        return Map.of("status", "success", "report", value);
+    }
+
+    public static Map<String, String> untyped(int count) {
+        return Map.of("status", "success", "report", String.valueOf(count));
+    }
+
+    private static ParallelToolCalls.Call call(String value, long millis) {
+        return new ParallelToolCalls.Call("slowEcho", Map.of("value", value, "millis", String.valueOf(millis)));
+    }
+
+    private static Map<String, Object> args(String value, long millis) {
+        return Map.of("value", value, "millis", String.valueOf(millis));
+    }
+
+    @Test
+    void runsCallsConcurrentlyAndReturnsEachCallItsOwnResult() {
+        ParallelToolCalls parallel = ParallelToolCalls.builder()
+                .tool(ParallelToolCallsTest.class, "slowEcho")
+                .maxConcurrency(3)
+                .build();
+
+        long started = System.nanoTime();
+        parallel.start("inv-1", List.of(call("a", 300), call("b", 300), call("c", 300)));
+        assertEquals("a", parallel.await("inv-1", "slowEcho", args("a", 300)).get("report"));
+        assertEquals("b", parallel.await("inv-1", "slowEcho", args("b", 300)).get("report"));
+        assertEquals("c", parallel.await("inv-1", "slowEcho", args("c", 300)).get("report"));
+
+        assertTrue(System.nanoTime() - started < Duration.ofMillis(800).toNanos());
+        // Drained turns are forgotten; a later call falls back to normal execution.
+        assertNull(parallel.await("inv-1", "slowEcho", args("a", 300)));
+    }
+
+    @Test
+    void respectsConcurrencyCap() {
+        peak.set(0);
+        ParallelToolCalls parallel = ParallelToolCalls.builder()
+                .tool(ParallelToolCallsTest.class, "slowEcho")
+                .maxConcurrency(2)
+                .build();
+
+        parallel.start("inv-2", List.of(call("a", 100), call("b", 100), call("c", 100), call("d", 100)));
+        for (String v : List.of("a", "b", "c", "d")) {
+            assertEquals(v, parallel.await("inv-2", "slowEcho", args(v, 100)).get("report"));
+        }
+        assertTrue(peak.get() <= 2, "peak concurrency " + peak.get());
+    }
+
+    @Test
+    void timeoutCancelsTheRestOfTheTurnInsteadOfRerunningIt() {
+        ParallelToolCalls parallel = ParallelToolCalls.builder()
+                .tool(ParallelToolCallsTest.class, "slowEcho")
+                .turnTimeout(Duration.ofMillis(200))
+                .build();
+
+        parallel.start("inv-3", List.of(call("a", 5_000), call("b", 5_000), call("c", 5_000)));
+        long started = System.nanoTime();
+        for (String v : List.of("a", "b", "c")) {
+            Map<String, Object> result = parallel.await("inv-3", "slowEcho", args(v, 5_000));
+            // Never null: null would make ADK run the 5 s tool itself, sequentially.
+            assertEquals("error", result.get("status"));
+        }
+        assertTrue(System.nanoTime() - started < Duration.ofMillis(1_000).toNanos());
+    }
+
+    @Test
+    void singleCallsAreLeftToAdk() {
+        ParallelToolCalls parallel = ParallelToolCalls.builder()
+                .tool(ParallelToolCallsTest.class, "slowEcho")
+                .build();
+
+        parallel.start("inv-4", List.of(call("a", 10)));
+        assertNull(parallel.await("inv-4", "slowEcho", args("a", 10)));
+    }
+
+    @Test
+    void rejectsToolsWithUnsupportedParameters() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ParallelToolCalls.builder().tool(ParallelToolCallsTest.class, "untyped"));
+    }
+}
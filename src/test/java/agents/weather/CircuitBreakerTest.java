@@ -0,0 +1,72 @@
+package agents.weather;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofSeconds(30), clock::get);
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.record(CircuitBreaker.Outcome.FAILURE);
+        }
+    }
+
+    @Test
+    void opensAfterThresholdThenHalfOpensAndClosesOnSuccessfulTrial() {
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.tryAcquire());
+        // Only one trial at a time.
+        assertFalse(breaker.tryAcquire());
+
+        breaker.record(CircuitBreaker.Outcome.SUCCESS);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void failedTrialReopens() {
+        fail(3);
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertTrue(breaker.tryAcquire());
+        breaker.record(CircuitBreaker.Outcome.FAILURE);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void ignoredTrialFreesTheSlotWithoutClosing() {
+        fail(3);
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertTrue(breaker.tryAcquire());
+        breaker.record(CircuitBreaker.Outcome.IGNORED);
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void successResetsConsecutiveFailureCount() {
+        fail(2);
+        assertTrue(breaker.tryAcquire());
+        breaker.record(CircuitBreaker.Outcome.SUCCESS);
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+}
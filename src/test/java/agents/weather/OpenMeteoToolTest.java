@@ -0,0 +1,51 @@
+package agents.weather;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import agents.weather.stub.FaultProfile;
+import agents.weather.stub.OpenMeteoStubServer;
+import java.io.IOException;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OpenMeteoToolTest {
+
+    private OpenMeteoStubServer stub;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ResilientHttp.reset();
+        stub = OpenMeteoStubServer.start(0, FaultProfile.clean());
+        stub.useForOpenMeteoTool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+        System.clearProperty("openmeteo.geocoding.url");
+        System.clearProperty("openmeteo.forecast.url");
+        ResilientHttp.reset();
+    }
+
+    @Test
+    void reportsWeatherFromConfiguredBaseUrls() {
+        Map<String, String> out = OpenMeteoTool.getCurrentWeather("New York");
+
+        assertEquals("success", out.get("status"));
+        assertTrue(out.get("report").startsWith("New York, United States: Mainly clear"), out.get("report"));
+        assertFalse(out.containsKey("stale"));
+        assertTrue(stub.requestCount() >= 2);
+    }
+
+    @Test
+    void reportsUnknownCity() {
+        Map<String, String> out = OpenMeteoTool.getCurrentWeather("Atlantis");
+
+        assertEquals("error", out.get("status"));
+        assertEquals("Could not resolve location for 'Atlantis'.", out.get("report"));
+    }
+}
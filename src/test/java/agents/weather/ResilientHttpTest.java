@@ -0,0 +1,164 @@
+package agents.weather;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import agents.weather.stub.FaultProfile;
+import agents.weather.stub.OpenMeteoStubServer;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ResilientHttpTest {
+
+    private OpenMeteoStubServer stub;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ResilientHttp.reset();
+        stub = OpenMeteoStubServer.start(0, FaultProfile.clean());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+        ResilientHttp.reset();
+    }
+
+    private String londonUrl() {
+        return stub.baseUrl() + "/v1/search?count=1&language=en&name=London";
+    }
+
+    @Test
+    void servesLastGoodBodyAsStaleWhenUpstreamFails() throws Exception {
+        ResilientHttp.Body live = ResilientHttp.get(londonUrl());
+        assertFalse(live.stale());
+
+        stub.setProfile(FaultProfile.builder().errorRate(1.0).build());
+        ResilientHttp.Body stale = ResilientHttp.get(londonUrl());
+
+        assertTrue(stale.stale());
+        assertEquals(live.text(), stale.text());
+    }
+
+    @Test
+    void rateLimitingHonoursRetryAfterAndDoesNotTripBreaker() throws Exception {
+        // A burst length equal to its period rate-limits everything after the first period.
+        stub.setProfile(FaultProfile.builder()
+                .rateLimitBursts(Duration.ofMillis(1), Duration.ofMillis(1))
+                .build());
+        Thread.sleep(5);
+
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            long started = System.nanoTime();
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                calls.add(pool.submit(() -> assertThrows(IOException.class, () -> ResilientHttp.get(londonUrl()))));
+            }
+            for (Future<?> call : calls) {
+                call.get();
+            }
+            // Three attempts, two Retry-After: 1 waits in between.
+            assertTrue(System.nanoTime() - started >= Duration.ofSeconds(2).toNanos());
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, ResilientHttp.breakerState(londonUrl()));
+    }
+
+    @Test
+    void unexpectedExceptionsCountAsFailures() {
+        // HttpClient rejects the scheme only once the request is built, inside the guarded call.
+        String unsupported = "ftp://" + stub.baseUrl().substring("http://".length()) + "/v1/search";
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalArgumentException.class, () -> ResilientHttp.get(unsupported));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, ResilientHttp.breakerState(unsupported));
+    }
+
+    @Test
+    void clientErrorsAreNotRetriedOrCountedAgainstUpstream() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            String unknown = stub.baseUrl() + "/v1/forecast?latitude=0&longitude=0";
+            assertThrows(IOException.class, () -> ResilientHttp.get(unknown));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, ResilientHttp.breakerState(londonUrl()));
+    }
+
+    @Test
+    void breakerIsPerHost() throws Exception {
+        try (OpenMeteoStubServer failing = OpenMeteoStubServer.start(0,
+                FaultProfile.builder().errorRate(1.0).build())) {
+            String failingUrl = failing.baseUrl() + "/v1/search?count=1&language=en&name=London";
+            for (int i = 0; i < 5; i++) {
+                assertThrows(IOException.class, () -> ResilientHttp.get(failingUrl));
+            }
+
+            assertEquals(CircuitBreaker.State.OPEN, ResilientHttp.breakerState(failingUrl));
+            assertEquals(CircuitBreaker.State.CLOSED, ResilientHttp.breakerState(londonUrl()));
+            assertFalse(ResilientHttp.get(londonUrl()).stale());
+        }
+    }
+
+    @Test
+    void stalledUpstreamFailsWithinDeadline() {
+        stub.setProfile(FaultProfile.builder().latency(FaultProfile.fixed(10_000)).build());
+
+        long started = System.nanoTime();
+        long deadline = started + Duration.ofSeconds(1).toNanos();
+        assertThrows(IOException.class, () -> ResilientHttp.get(londonUrl(), deadline));
+
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        assertTrue(elapsedMs < 1_500, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void hedgeCutsStragglersAndStaysWithinBudget() throws Exception {
+        // Fill the latency window on the fast path so the hedge delay settles at its floor.
+        for (int i = 0; i < 30; i++) {
+            ResilientHttp.get(londonUrl());
+        }
+
+        // Every call's first request straggles and its hedge is fast.
+        AtomicInteger seq = new AtomicInteger();
+        stub.setProfile(FaultProfile.builder()
+                .latency(random -> seq.getAndIncrement() % 2 == 0 ? 3_000 : 5)
+                .build());
+        for (int i = 0; i < 5; i++) {
+            long started = System.nanoTime();
+            assertFalse(ResilientHttp.get(londonUrl()).stale());
+            long elapsedMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+            assertTrue(elapsedMs < 750, "hedged call took " + elapsedMs + " ms");
+        }
+
+        // Uniformly slow: every call would hedge, but the budget only pays for a few.
+        stub.setProfile(FaultProfile.builder().latency(FaultProfile.fixed(400)).build());
+        int calls = 40;
+        long before = stub.requestCount();
+        ExecutorService pool = Executors.newFixedThreadPool(calls);
+        try {
+            List<Future<ResilientHttp.Body>> results = new ArrayList<>();
+            for (int i = 0; i < calls; i++) {
+                results.add(pool.submit(() -> ResilientHttp.get(londonUrl())));
+            }
+            for (Future<ResilientHttp.Body> result : results) {
+                assertFalse(result.get().stale());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        long hedges = stub.requestCount() - before - calls;
+        assertTrue(hedges <= 10 + calls / 20, "sent " + hedges + " hedges for " + calls + " calls");
+    }
+}
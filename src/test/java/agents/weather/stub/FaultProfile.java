@@ -0,0 +1,132 @@
+package agents.weather.stub;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Scripted misbehaviour for {@link OpenMeteoStubServer}: response latency, error rate, periodic
+ * 429 bursts and slow-drip bodies. Immutable; swap profiles on a running server with
+ * {@link OpenMeteoStubServer#setProfile(FaultProfile)}.
+ */
+public final class FaultProfile {
+
+    /** Samples a response delay in milliseconds. */
+    public interface LatencyDistribution {
+        long sampleMillis(Random random);
+    }
+
+    final LatencyDistribution latency;
+    final double errorRate;
+    final Duration rateLimitEvery;
+    final Duration rateLimitLength;
+    final double slowDripRate;
+    final int slowDripChunkBytes;
+    final Duration slowDripDelay;
+
+    private FaultProfile(Builder b) {
+        this.latency = b.latency;
+        this.errorRate = b.errorRate;
+        this.rateLimitEvery = b.rateLimitEvery;
+        this.rateLimitLength = b.rateLimitLength;
+        this.slowDripRate = b.slowDripRate;
+        this.slowDripChunkBytes = b.slowDripChunkBytes;
+        this.slowDripDelay = b.slowDripDelay;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Replays fixtures as fast as possible. */
+    public static FaultProfile clean() {
+        return builder().build();
+    }
+
+    /** Mostly quick answers with a 2% tail of multi-second stragglers. */
+    public static FaultProfile stragglers() {
+        return builder()
+                .latency(mixture(0.98, logNormal(40, 0.4), uniform(1_500, 4_000)))
+                .build();
+    }
+
+    /** An upstream incident: slow, erroring, rate limiting and dripping bodies. */
+    public static FaultProfile degraded() {
+        return builder()
+                .latency(logNormal(150, 0.8))
+                .errorRate(0.10)
+                .rateLimitBursts(Duration.ofSeconds(10), Duration.ofSeconds(1))
+                .slowDrip(0.05, 16, Duration.ofMillis(50))
+                .build();
+    }
+
+    /** Looks up a named preset: clean, stragglers or degraded. */
+    public static FaultProfile named(String name) {
+        return switch (name) {
+            case "clean" -> clean();
+            case "stragglers" -> stragglers();
+            case "degraded" -> degraded();
+            default -> throw new IllegalArgumentException(
+                    "Unknown fault profile '" + name + "'. Use clean, stragglers or degraded.");
+        };
+    }
+
+    public static LatencyDistribution fixed(long millis) {
+        return random -> millis;
+    }
+
+    public static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+    }
+
+    /** Long-tailed latency with the given median; sigma ≈ 0.5 is mild, ≥ 1 is a heavy tail. */
+    public static LatencyDistribution logNormal(double medianMillis, double sigma) {
+        return random -> Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    /** Samples {@code first} with probability {@code p}, otherwise {@code second}. */
+    public static LatencyDistribution mixture(double p, LatencyDistribution first, LatencyDistribution second) {
+        return random -> random.nextDouble() < p ? first.sampleMillis(random) : second.sampleMillis(random);
+    }
+
+    public static final class Builder {
+        private LatencyDistribution latency = fixed(0);
+        private double errorRate = 0;
+        private Duration rateLimitEvery = Duration.ZERO;
+        private Duration rateLimitLength = Duration.ZERO;
+        private double slowDripRate = 0;
+        private int slowDripChunkBytes = 16;
+        private Duration slowDripDelay = Duration.ZERO;
+
+        private Builder() {}
+
+        public Builder latency(LatencyDistribution latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /** Fraction of requests answered with HTTP 500/503. */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /** Every {@code every}, answer all requests with 429 for {@code length}. */
+        public Builder rateLimitBursts(Duration every, Duration length) {
+            this.rateLimitEvery = every;
+            this.rateLimitLength = length;
+            return this;
+        }
+
+        /** Fraction of responses whose body is written {@code chunkBytes} at a time, {@code delay} apart. */
+        public Builder slowDrip(double rate, int chunkBytes, Duration delay) {
+            this.slowDripRate = rate;
+            this.slowDripChunkBytes = Math.max(1, chunkBytes);
+            this.slowDripDelay = delay;
+            return this;
+        }
+
+        public FaultProfile build() {
+            return new FaultProfile(this);
+        }
+    }
+}
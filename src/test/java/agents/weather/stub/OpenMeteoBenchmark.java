@@ -0,0 +1,96 @@
+package agents.weather.stub;
+
+import agents.weather.OpenMeteoTool;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives {@link OpenMeteoTool#getCurrentWeather} at high concurrency against an embedded
+ * {@link OpenMeteoStubServer} and reports throughput and latency percentiles.
+ *
+ * <p>Usage: {@code OpenMeteoBenchmark [concurrency=64] [requests=5000] [profile=clean]}, where
+ * profile is one of clean, stragglers or degraded. Runs entirely offline, from the test classpath:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=agents.weather.stub.OpenMeteoBenchmark -Dexec.args="64 5000 stragglers"}.
+ *
+ * <p>The warm-up fills the tool's last-good cache, so under faults some answers are stale fallbacks
+ * rather than live readings; those are counted separately from live successes.
+ */
+public class OpenMeteoBenchmark {
+
+    private static final String[] CITIES = {"London", "New York", "Tokyo", "Paris", "San Francisco", "Sydney"};
+    private static final int WARMUP_REQUESTS = 500;
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        String profileName = args.length > 2 ? args[2] : "clean";
+
+        try (OpenMeteoStubServer stub = OpenMeteoStubServer.start(0, FaultProfile.clean())) {
+            stub.useForOpenMeteoTool();
+
+            // Warm the JIT, connection pool and ResilientHttp's latency window on a clean stub.
+            run(Math.min(concurrency, 16), WARMUP_REQUESTS);
+
+            stub.setProfile(FaultProfile.named(profileName));
+            Result result = run(concurrency, requests);
+
+            System.out.printf("profile=%s concurrency=%d requests=%d%n", profileName, concurrency, requests);
+            System.out.printf("throughput: %.1f req/s over %.2f s%n",
+                    requests / (result.elapsedNanos / 1e9), result.elapsedNanos / 1e9);
+            System.out.printf("live: %d, stale fallback: %d, error: %d%n", result.live, result.stale,
+                    requests - result.live - result.stale);
+            System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                    percentile(result.latencies, 0.50), percentile(result.latencies, 0.90),
+                    percentile(result.latencies, 0.99), percentile(result.latencies, 0.999),
+                    result.latencies[result.latencies.length - 1] / 1e6);
+        }
+    }
+
+    private record Result(long elapsedNanos, int live, int stale, long[] latencies) {}
+
+    private static Result run(int concurrency, int requests) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        long[] latencies = new long[requests];
+        AtomicInteger live = new AtomicInteger();
+        AtomicInteger stale = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(requests);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int n = i;
+            futures.add(pool.submit(() -> {
+                long t0 = System.nanoTime();
+                Map<String, String> out = OpenMeteoTool.getCurrentWeather(CITIES[n % CITIES.length]);
+                latencies[n] = System.nanoTime() - t0;
+                if (!"success".equals(out.get("status"))) {
+                    return;
+                }
+                if ("true".equals(out.get("stale"))) {
+                    stale.incrementAndGet();
+                } else {
+                    live.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        Arrays.sort(latencies);
+        return new Result(elapsed, live.get(), stale.get(), latencies);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}
@@ -0,0 +1,274 @@
+package agents.weather.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the Open-Meteo geocoding and forecast APIs.
+ *
+ * <p>Replays the recorded responses under {@code src/test/resources/openmeteo} and applies a
+ * {@link FaultProfile} to every request. Point {@code OpenMeteoTool} at it with
+ * {@code -Dopenmeteo.geocoding.url=<baseUrl> -Dopenmeteo.forecast.url=<baseUrl>}.
+ *
+ * <p>Test scaffolding only. Run standalone from the test classpath:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=agents.weather.stub.OpenMeteoStubServer -Dexec.args="[port] [profile]"}.
+ */
+public final class OpenMeteoStubServer implements AutoCloseable {
+
+    private static final String FIXTURES = "/openmeteo/";
+    private static final String NO_RESULTS = "{\"generationtime_ms\":0.4}";
+    private static final Pattern LATITUDE = Pattern.compile("\"latitude\":\\s*([0-9.-]+)");
+    private static final Pattern LONGITUDE = Pattern.compile("\"longitude\":\\s*([0-9.-]+)");
+
+    private record Fixture(String name, double lat, double lon, byte[] geocoding, byte[] forecast) {}
+
+    private final List<Fixture> fixtures;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long startedNanos = System.nanoTime();
+    private final AtomicLong requests = new AtomicLong();
+    private volatile FaultProfile profile;
+
+    private OpenMeteoStubServer(int port, FaultProfile profile) throws IOException {
+        // Headers and body go out as separate small writes; without TCP_NODELAY, Nagle plus the
+        // client's delayed ACK adds ~40 ms per response and swamps whatever the profile injects.
+        // Read once by the JDK server, so it must be set before the first HttpServer is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.fixtures = loadFixtures();
+        this.profile = profile;
+        AtomicInteger seq = new AtomicInteger();
+        // Handlers sleep to simulate latency, so give every connection its own thread.
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "openmeteo-stub-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        this.server.createContext("/v1/search", exchange -> handle(exchange, this::geocoding));
+        this.server.createContext("/v1/forecast", exchange -> handle(exchange, this::forecast));
+        this.server.setExecutor(executor);
+    }
+
+    /** Starts a stub on {@code port} (0 picks a free port). */
+    public static OpenMeteoStubServer start(int port, FaultProfile profile) throws IOException {
+        OpenMeteoStubServer stub = new OpenMeteoStubServer(port, profile);
+        stub.server.start();
+        return stub;
+    }
+
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /** Points {@code OpenMeteoTool} at this stub for the current JVM. */
+    public void useForOpenMeteoTool() {
+        System.setProperty("openmeteo.geocoding.url", baseUrl());
+        System.setProperty("openmeteo.forecast.url", baseUrl());
+    }
+
+    public void setProfile(FaultProfile profile) {
+        this.profile = profile;
+    }
+
+    /** Requests received so far, hedges and retries included. */
+    public long requestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private interface Route {
+        byte[] body(Map<String, String> query);
+    }
+
+    private void handle(HttpExchange exchange, Route route) throws IOException {
+        requests.incrementAndGet();
+        FaultProfile p = profile;
+        Random random = ThreadLocalRandom.current();
+        try (exchange) {
+            sleep(p.latency.sampleMillis(random));
+
+            if (inRateLimitBurst(p)) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 429, "{\"error\":true,\"reason\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8), p, random);
+                return;
+            }
+            if (random.nextDouble() < p.errorRate) {
+                int status = random.nextBoolean() ? 500 : 503;
+                send(exchange, status, "{\"error\":true,\"reason\":\"Injected failure\"}".getBytes(StandardCharsets.UTF_8), p, random);
+                return;
+            }
+
+            byte[] body = route.body(parseQuery(exchange.getRequestURI().getRawQuery()));
+            if (body == null) {
+                send(exchange, 400, "{\"error\":true,\"reason\":\"Unknown location\"}".getBytes(StandardCharsets.UTF_8), p, random);
+                return;
+            }
+            send(exchange, 200, body, p, random);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private byte[] geocoding(Map<String, String> query) {
+        String name = normalize(query.getOrDefault("name", ""));
+        for (Fixture f : fixtures) {
+            if (f.name().equals(name)) {
+                return f.geocoding();
+            }
+        }
+        return NO_RESULTS.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] forecast(Map<String, String> query) {
+        try {
+            double lat = Double.parseDouble(query.getOrDefault("latitude", ""));
+            double lon = Double.parseDouble(query.getOrDefault("longitude", ""));
+            for (Fixture f : fixtures) {
+                if (Math.abs(f.lat() - lat) < 0.01 && Math.abs(f.lon() - lon) < 0.01) {
+                    return f.forecast();
+                }
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        return null;
+    }
+
+    private boolean inRateLimitBurst(FaultProfile p) {
+        long every = p.rateLimitEvery.toNanos();
+        if (every <= 0 || p.rateLimitLength.isZero()) return false;
+        long sinceStart = System.nanoTime() - startedNanos;
+        // The first burst starts one full period in, so a fresh stub always begins healthy.
+        return sinceStart >= every && sinceStart % every < p.rateLimitLength.toNanos();
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body, FaultProfile p, Random random)
+            throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        boolean drip = random.nextDouble() < p.slowDripRate;
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (!drip) {
+                out.write(body);
+                return;
+            }
+            for (int off = 0; off < body.length; off += p.slowDripChunkBytes) {
+                out.write(body, off, Math.min(p.slowDripChunkBytes, body.length - off));
+                out.flush();
+                sleep(p.slowDripDelay.toMillis());
+            }
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) Thread.sleep(millis);
+    }
+
+    private static Map<String, String> parseQuery(String raw) {
+        Map<String, String> query = new HashMap<>();
+        if (raw == null) return query;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    // Same normalization as OpenMeteoTool.normalizeCity, with spaces turned into the fixture-name dashes.
+    private static String normalize(String city) {
+        return Normalizer.normalize(city, Normalizer.Form.NFD)
+                .trim()
+                .toLowerCase()
+                .replaceAll("(\\p{IsM}+|\\p{IsP}+)", "")
+                .replaceAll("\\s+", "-");
+    }
+
+    private static List<Fixture> loadFixtures() {
+        List<Fixture> loaded = new ArrayList<>();
+        for (String name : readLines(FIXTURES + "fixtures.txt")) {
+            byte[] geocoding = readResource(FIXTURES + "geocoding/" + name + ".json");
+            byte[] forecast = readResource(FIXTURES + "forecast/" + name + ".json");
+            String geo = new String(geocoding, StandardCharsets.UTF_8);
+            loaded.add(new Fixture(name, extract(geo, LATITUDE), extract(geo, LONGITUDE), geocoding, forecast));
+        }
+        return List.copyOf(loaded);
+    }
+
+    private static double extract(String json, Pattern pattern) {
+        Matcher m = pattern.matcher(json);
+        if (!m.find()) throw new IllegalStateException("Fixture without coordinates: " + json);
+        return Double.parseDouble(m.group(1));
+    }
+
+    private static List<String> readLines(String resource) {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(open(resource), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) lines.add(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return lines;
+    }
+
+    private static byte[] readResource(String resource) {
+        try (InputStream in = open(resource)) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static InputStream open(String resource) {
+        InputStream in = OpenMeteoStubServer.class.getResourceAsStream(resource);
+        if (in == null) throw new IllegalStateException("Missing fixture resource " + resource);
+        return in;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        FaultProfile profile = FaultProfile.named(args.length > 1 ? args[1] : "clean");
+        OpenMeteoStubServer stub = start(port, profile);
+        System.out.println("Open-Meteo stub listening on " + stub.baseUrl());
+        System.out.println("Use: -Dopenmeteo.geocoding.url=" + stub.baseUrl()
+                + " -Dopenmeteo.forecast.url=" + stub.baseUrl());
+        Thread.currentThread().join();
+    }
+}
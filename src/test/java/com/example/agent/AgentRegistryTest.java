@@ -0,0 +1,41 @@
+package com.example.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class AgentRegistryTest {
+
+    static final AtomicInteger initializations = new AtomicInteger();
+
+    private static final String FIXTURE = "com.example.agent.RegistryFixtureAgent";
+
+    @Test
+    void discoversAgentsWithoutInitializingThem() {
+        assertTrue(AgentRegistry.exists(FIXTURE));
+        assertFalse(AgentRegistry.names().isEmpty());
+        assertThrows(IllegalStateException.class, () -> AgentRegistry.responseCache(FIXTURE));
+        assertThrows(IllegalStateException.class, () -> AgentRegistry.inputFilter(FIXTURE));
+        assertEquals(0, initializations.get());
+
+        assertSame(RegistryFixtureAgent.ROOT_AGENT, AgentRegistry.load(FIXTURE));
+        assertEquals(1, initializations.get());
+
+        assertNotNull(AgentRegistry.responseCache(FIXTURE));
+        assertTrue(AgentRegistry.hasInputFilter(FIXTURE));
+        assertEquals("x", AgentRegistry.inputFilter(FIXTURE).apply("  x "));
+        assertEquals(1, initializations.get());
+    }
+
+    @Test
+    void unknownNamesDoNotExist() {
+        assertFalse(AgentRegistry.exists("no-such-agent"));
+        assertThrows(IllegalArgumentException.class, () -> AgentRegistry.load("no-such-agent"));
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.agent;
+
+import agents.cache.ResponseCache;
+import com.google.adk.agents.BaseAgent;
+import com.google.adk.agents.LlmAgent;
+import java.util.function.UnaryOperator;
+
+/** Agent class whose initialization is observable, for {@link AgentRegistryTest}. */
+public class RegistryFixtureAgent {
+
+    static {
+        AgentRegistryTest.initializations.incrementAndGet();
+    }
+
+    public static final ResponseCache RESPONSE_CACHE = ResponseCache.builder("registry_fixture").build();
+
+    public static final UnaryOperator<String> INPUT_FILTER = String::trim;
+
+    public static final BaseAgent ROOT_AGENT = LlmAgent.builder()
+            .name("registry_fixture")
+            .model("gemini-2.0-flash")
+            .description("Fixture agent for registry tests.")
+            .instruction("Unused.")
+            .build();
+}